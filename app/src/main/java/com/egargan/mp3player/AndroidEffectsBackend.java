@@ -0,0 +1,187 @@
+package com.egargan.mp3player;
+
+import android.media.audiofx.AudioEffect;
+import android.media.audiofx.BassBoost;
+import android.media.audiofx.Equalizer;
+import android.media.audiofx.LoudnessEnhancer;
+import android.media.audiofx.Virtualizer;
+import android.util.Log;
+
+/**
+ * EffectsBackend using the platform's audiofx effects. Not every device supports every
+ * effect, and another app can take control of an effect at any time, so any effect that
+ * can't be created or controlled is skipped - a failed setting never stops playback.
+ */
+public class AndroidEffectsBackend implements EffectsBackend {
+
+    private static final int PRIORITY = 0;
+
+    private Equalizer equalizer;
+    private BassBoost bassBoost;
+    private Virtualizer virtualizer;
+    private LoudnessEnhancer loudnessEnhancer;
+
+    @Override
+    public void attach(int audioSessionId) {
+
+        release();
+
+        try {
+            equalizer = new Equalizer(PRIORITY, audioSessionId);
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", "Equalizer unavailable: " + e.toString());
+        }
+
+        try {
+            bassBoost = new BassBoost(PRIORITY, audioSessionId);
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", "Bass boost unavailable: " + e.toString());
+        }
+
+        try {
+            virtualizer = new Virtualizer(PRIORITY, audioSessionId);
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", "Virtualizer unavailable: " + e.toString());
+        }
+
+        try {
+            loudnessEnhancer = new LoudnessEnhancer(audioSessionId);
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", "Loudness enhancer unavailable: " + e.toString());
+        }
+    }
+
+    @Override
+    public void release() {
+
+        if (equalizer != null) equalizer.release();
+        if (bassBoost != null) bassBoost.release();
+        if (virtualizer != null) virtualizer.release();
+        if (loudnessEnhancer != null) loudnessEnhancer.release();
+
+        equalizer = null;
+        bassBoost = null;
+        virtualizer = null;
+        loudnessEnhancer = null;
+    }
+
+    @Override
+    public boolean isAttached() {
+
+        if (equalizer == null && bassBoost == null &&
+                virtualizer == null && loudnessEnhancer == null)
+            return false;
+
+        // Read a parameter from each effect - this goes through to the platform, so it
+        // throws if the effect's session has been torn down
+        try {
+            if (equalizer != null) equalizer.getBandLevel((short) 0);
+            if (bassBoost != null) bassBoost.getRoundedStrength();
+            if (virtualizer != null) virtualizer.getRoundedStrength();
+            if (loudnessEnhancer != null) loudnessEnhancer.getTargetGain();
+        } catch (RuntimeException e) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int getBandCount() {
+        try {
+            return equalizer != null ? equalizer.getNumberOfBands() : 0;
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", e.toString());
+            return 0;
+        }
+    }
+
+    @Override
+    public int getMinBandLevel() {
+        short[] range = getBandLevelRange();
+        return range != null ? range[0] : 0;
+    }
+
+    @Override
+    public int getMaxBandLevel() {
+        short[] range = getBandLevelRange();
+        return range != null ? range[1] : 0;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        setEnabled(equalizer, enabled);
+        setEnabled(bassBoost, enabled);
+        setEnabled(virtualizer, enabled);
+        setEnabled(loudnessEnhancer, enabled);
+    }
+
+    @Override
+    public void setBandLevel(int band, int level) {
+        if (!hasControl(equalizer)) return;
+        try {
+            equalizer.setBandLevel((short) band, (short) level);
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", e.toString());
+        }
+    }
+
+    @Override
+    public void setBassBoostStrength(int strength) {
+        if (!hasControl(bassBoost)) return;
+        try {
+            if (bassBoost.getStrengthSupported()) bassBoost.setStrength((short) strength);
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", e.toString());
+        }
+    }
+
+    @Override
+    public void setVirtualizerStrength(int strength) {
+        if (!hasControl(virtualizer)) return;
+        try {
+            if (virtualizer.getStrengthSupported()) virtualizer.setStrength((short) strength);
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", e.toString());
+        }
+    }
+
+    @Override
+    public void setLoudnessGain(int gain) {
+        if (!hasControl(loudnessEnhancer)) return;
+        try {
+            loudnessEnhancer.setTargetGain(gain);
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", e.toString());
+        }
+    }
+
+    /** @return Equalizer's min + max band levels, or null if unavailable. */
+    private short[] getBandLevelRange() {
+        try {
+            return equalizer != null ? equalizer.getBandLevelRange() : null;
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", e.toString());
+            return null;
+        }
+    }
+
+    /** Effects lose control when a higher priority app attaches to the same session -
+     *  their setters then throw, so callers skip them instead. */
+    private static boolean hasControl(AudioEffect effect) {
+        try {
+            return effect != null && effect.hasControl();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void setEnabled(AudioEffect effect, boolean enabled) {
+        if (!hasControl(effect)) return;
+        try {
+            effect.setEnabled(enabled);
+        } catch (RuntimeException e) {
+            Log.e("AndroidEffectsBackend", e.toString());
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.egargan.mp3player;
+
+/**
+ * Abstraction over the platform's audio effects, so that EffectsChain's binding logic can be
+ * run without a device. Levels and gains are in millibels, strengths are 0 to 1000.
+ */
+public interface EffectsBackend {
+
+    /** Creates a fresh set of effects on the given audio session, releasing any existing ones.
+     *  Newly created effects start disabled, at their default settings. */
+    void attach(int audioSessionId);
+
+    /** Releases all effects. Safe to call when nothing is attached. */
+    void release();
+
+    /** @return True if effects are attached and still usable. Effects die if the platform
+     *  tears down their session, e.g. once no player holds it. */
+    boolean isAttached();
+
+    int getBandCount();
+
+    int getMinBandLevel();
+
+    int getMaxBandLevel();
+
+    void setEnabled(boolean enabled);
+
+    void setBandLevel(int band, int level);
+
+    void setBassBoostStrength(int strength);
+
+    void setVirtualizerStrength(int strength);
+
+    void setLoudnessGain(int gain);
+}
@@ -0,0 +1,112 @@
+package com.egargan.mp3player;
+
+/**
+ * Binds an effects preset to a player's audio session. Tracks the values last pushed to the
+ * backend, so preset changes only touch the settings that actually differ rather than
+ * tearing down and rebuilding every effect.
+ */
+public class EffectsChain {
+
+    private static final int NO_SESSION = 0;
+
+    private static final int MIN_STRENGTH = 0;
+    private static final int MAX_STRENGTH = 1000;
+
+    private final EffectsBackend backend;
+
+    private EffectsPreset preset;
+    private EffectsPreset applied; // What the backend currently holds - null if fresh effects
+    private int sessionId = NO_SESSION;
+
+    public EffectsChain(EffectsBackend backend, EffectsPreset preset) {
+        this.backend = backend;
+        this.preset = preset;
+    }
+
+    /** Attaches effects to the given audio session. Effects are only recreated if the
+     *  session differs from the current one, or the current effects have died, so reusing
+     *  a session across songs keeps the same effects running without a gap. */
+    public void attach(int audioSessionId) {
+
+        if (audioSessionId == sessionId && backend.isAttached()) return;
+
+        sessionId = NO_SESSION;
+        backend.attach(audioSessionId);
+        applied = null;
+
+        apply();
+
+        // Only recorded once applied, so a failed attach is retried on the next load
+        sessionId = audioSessionId;
+    }
+
+    public EffectsPreset getPreset() {
+        return preset;
+    }
+
+    /** Changes preset, applying only the differences to any attached effects. */
+    public void setPreset(EffectsPreset preset) {
+        this.preset = preset;
+        if (sessionId != NO_SESSION) apply();
+    }
+
+    public int getBandCount() {
+        return sessionId != NO_SESSION ? backend.getBandCount() : 0;
+    }
+
+    public void release() {
+        backend.release();
+        sessionId = NO_SESSION;
+        applied = null;
+    }
+
+    /** Pushes preset to the backend - every setting if the effects are fresh,
+     *  otherwise just those that changed since the last push. */
+    private void apply() {
+
+        EffectsPreset previous = applied;
+        boolean fresh = previous == null;
+        applied = null; // If a push fails part way, next apply must push everything again
+
+        int minLevel = backend.getMinBandLevel();
+        int maxLevel = backend.getMaxBandLevel();
+
+        for (int band = 0; band < backend.getBandCount(); band++) {
+            int level = clampedBandLevel(preset, band, minLevel, maxLevel);
+
+            if (fresh || level != clampedBandLevel(previous, band, minLevel, maxLevel)) {
+                backend.setBandLevel(band, level);
+            }
+        }
+
+        int bassBoost = clampedStrength(preset.getBassBoost());
+        if (fresh || bassBoost != clampedStrength(previous.getBassBoost())) {
+            backend.setBassBoostStrength(bassBoost);
+        }
+
+        int virtualizer = clampedStrength(preset.getVirtualizer());
+        if (fresh || virtualizer != clampedStrength(previous.getVirtualizer())) {
+            backend.setVirtualizerStrength(virtualizer);
+        }
+
+        if (fresh || preset.getLoudnessGain() != previous.getLoudnessGain()) {
+            backend.setLoudnessGain(preset.getLoudnessGain());
+        }
+
+        // Enable last, so fresh effects don't briefly play at their default settings
+        if (fresh || preset.isEnabled() != previous.isEnabled()) {
+            backend.setEnabled(preset.isEnabled());
+        }
+
+        applied = preset;
+    }
+
+    private static int clampedBandLevel(EffectsPreset preset, int band, int min, int max) {
+        return Math.max(min, Math.min(max, preset.getBandLevel(band)));
+    }
+
+    private static int clampedStrength(int strength) {
+        return Math.max(MIN_STRENGTH, Math.min(MAX_STRENGTH, strength));
+    }
+
+}
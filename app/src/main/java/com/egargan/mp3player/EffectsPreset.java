@@ -0,0 +1,122 @@
+package com.egargan.mp3player;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of every effect setting in the chain. Band levels and loudness gain are
+ * in millibels, bass boost and virtualizer strengths are 0 to 1000.
+ */
+public final class EffectsPreset {
+
+    /** No effects applied - used when nothing has been saved yet. */
+    public static final EffectsPreset FLAT = new EffectsPreset(false, new int[0], 0, 0, 0);
+
+    private final boolean enabled;
+    private final int[] bandLevels;
+    private final int bassBoost;
+    private final int virtualizer;
+    private final int loudnessGain;
+
+    public EffectsPreset(boolean enabled, int[] bandLevels,
+                         int bassBoost, int virtualizer, int loudnessGain) {
+        this.enabled = enabled;
+        this.bandLevels = bandLevels.clone();
+        this.bassBoost = bassBoost;
+        this.virtualizer = virtualizer;
+        this.loudnessGain = loudnessGain;
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    public int getBandCount() { return bandLevels.length; }
+
+    /** @return Level of the given band, or 0 (flat) for bands this preset doesn't cover. */
+    public int getBandLevel(int band) {
+        return band < bandLevels.length ? bandLevels[band] : 0;
+    }
+
+    public int getBassBoost() { return bassBoost; }
+
+    public int getVirtualizer() { return virtualizer; }
+
+    public int getLoudnessGain() { return loudnessGain; }
+
+    /** Encodes preset as a single string, e.g. for storing in shared preferences.
+     *  Format is "enabled;band,band,...;bassBoost;virtualizer;loudnessGain". */
+    public String serialise() {
+
+        StringBuilder bands = new StringBuilder();
+        for (int i = 0; i < bandLevels.length; i++) {
+            if (i > 0) bands.append(',');
+            bands.append(bandLevels[i]);
+        }
+
+        return (enabled ? "1" : "0") + ";" + bands + ";" +
+                bassBoost + ";" + virtualizer + ";" + loudnessGain;
+    }
+
+    /** Decodes a string produced by serialise().
+     *  @throws IllegalArgumentException if the string is malformed. */
+    public static EffectsPreset parse(String str) {
+
+        String[] parts = str.split(";", -1);
+        if (parts.length != 5)
+            throw new IllegalArgumentException("Malformed effects preset: " + str);
+
+        try {
+            int[] bands = new int[0];
+            if (!parts[1].isEmpty()) {
+                String[] bandStrs = parts[1].split(",");
+                bands = new int[bandStrs.length];
+                for (int i = 0; i < bandStrs.length; i++) {
+                    bands[i] = Integer.parseInt(bandStrs[i]);
+                }
+            }
+
+            return new EffectsPreset(parts[0].equals("1"), bands,
+                    Integer.parseInt(parts[2]),
+                    Integer.parseInt(parts[3]),
+                    Integer.parseInt(parts[4]));
+
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed effects preset: " + str, e);
+        }
+    }
+
+    /** Lenient version of parse(), for reading stored presets that may be missing or corrupt.
+     *  @return Decoded preset, or null if the string is null or malformed. */
+    public static EffectsPreset parseOrNull(String str) {
+
+        if (str == null) return null;
+
+        try {
+            return parse(str);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EffectsPreset)) return false;
+
+        EffectsPreset other = (EffectsPreset) o;
+        return enabled == other.enabled &&
+                bassBoost == other.bassBoost &&
+                virtualizer == other.virtualizer &&
+                loudnessGain == other.loudnessGain &&
+                Arrays.equals(bandLevels, other.bandLevels);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = enabled ? 1 : 0;
+        result = 31 * result + Arrays.hashCode(bandLevels);
+        result = 31 * result + bassBoost;
+        result = 31 * result + virtualizer;
+        result = 31 * result + loudnessGain;
+        return result;
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.egargan.mp3player;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Persists effects presets in shared preferences - both named presets saved by the user,
+ * and the preset currently in use, so it can be restored when the service restarts.
+ */
+public class EffectsPresetStore {
+
+    private static final String PREFS_NAME = "effects";
+    private static final String KEY_CURRENT = "current";
+    private static final String KEY_PRESET_PREFIX = "preset_";
+
+    private final SharedPreferences prefs;
+
+    public EffectsPresetStore(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /** @return Preset in use when last saved, or a flat preset if none saved or corrupt. */
+    public EffectsPreset loadCurrent() {
+        EffectsPreset preset = EffectsPreset.parseOrNull(prefs.getString(KEY_CURRENT, null));
+        return preset != null ? preset : EffectsPreset.FLAT;
+    }
+
+    public void saveCurrent(EffectsPreset preset) {
+        prefs.edit().putString(KEY_CURRENT, preset.serialise()).apply();
+    }
+
+    /** @return Named preset, or null if none saved under that name or it's corrupt. */
+    public EffectsPreset load(String name) {
+        return EffectsPreset.parseOrNull(prefs.getString(KEY_PRESET_PREFIX + name, null));
+    }
+
+    public void save(String name, EffectsPreset preset) {
+        prefs.edit().putString(KEY_PRESET_PREFIX + name, preset.serialise()).apply();
+    }
+
+    public void delete(String name) {
+        prefs.edit().remove(KEY_PRESET_PREFIX + name).apply();
+    }
+
+    /** @return Names of all saved presets, in alphabetical order. */
+    public Set<String> getNames() {
+
+        Set<String> names = new TreeSet<>();
+        for (String key : prefs.getAll().keySet()) {
+            if (key.startsWith(KEY_PRESET_PREFIX)) {
+                names.add(key.substring(KEY_PRESET_PREFIX.length()));
+            }
+        }
+        return names;
+    }
+
+}
@@ -12,6 +12,8 @@ public class MP3Player {
     protected MP3PlayerState state;
     protected String filePath;
 
+    protected EffectsChain effects;
+
     public enum MP3PlayerState {
         ERROR,
         PLAYING,
@@ -23,13 +25,26 @@ public class MP3Player {
         this.state = MP3PlayerState.STOPPED;
     }
 
+    /** @param effects Effects chain attached to each loaded song's audio session. */
+    public MP3Player(EffectsChain effects) {
+        this();
+        this.effects = effects;
+    }
+
     public MP3PlayerState getState() {
         return this.state;
     }
 
     public void load(String filePath) {
         this.filePath = filePath;
-        mediaPlayer = new MediaPlayer();
+
+        // Reuse the same MediaPlayer for every song - it holds the audio session for as long
+        // as it lives, so the effects attached to that session stay alive between songs
+        if (mediaPlayer == null) {
+            mediaPlayer = new MediaPlayer();
+        } else {
+            mediaPlayer.reset();
+        }
         mediaPlayer.setAudioStreamType(AudioManager.STREAM_MUSIC);
 
         try{
@@ -49,10 +64,17 @@ public class MP3Player {
 
         Log.i("player", "Loaded");
 
+        // Attach before starting, so no audio plays without effects applied
+        if (effects != null) effects.attach(mediaPlayer.getAudioSessionId());
+
         this.state = MP3PlayerState.PLAYING;
         mediaPlayer.start();
     }
 
+    public EffectsChain getEffects() {
+        return this.effects;
+    }
+
     public String getFilePath() {
         return this.filePath;
     }
@@ -91,9 +113,18 @@ public class MP3Player {
             if(mediaPlayer.isPlaying())
                 mediaPlayer.stop();
             state = MP3PlayerState.STOPPED;
-            mediaPlayer.reset();
+            mediaPlayer.reset(); // Not released, so the audio session is kept for the next load
+        }
+    }
+
+    /** Stops playback and releases the media player + effects chain.
+     *  Player can't be used after this. */
+    public void release() {
+        stop();
+        if (mediaPlayer != null) {
             mediaPlayer.release();
             mediaPlayer = null;
         }
+        if (effects != null) effects.release();
     }
 }
\ No newline at end of file
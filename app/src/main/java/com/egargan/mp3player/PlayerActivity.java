@@ -22,10 +22,11 @@ import android.view.View;
 import android.widget.AdapterView;
 import android.widget.Button;
 import android.widget.ListView;
-import android.widget.ProgressBar;
 import android.widget.SimpleCursorAdapter;
 import android.widget.TextView;
 
+import java.io.File;
+
 /**
  * Single activity component for player UI. Gets and displays music files from external storage.
  * Also controls audio playback control buttons.
@@ -48,7 +49,10 @@ public class PlayerActivity extends AppCompatActivity {
     private Handler handler; // Handler for song progress polling method
     private boolean isPolling = false; // Prevents duplicate runnables
 
-    private ProgressBar songProgBar;
+    private WaveformView songProgBar;
+
+    private WaveformCache waveformCache;
+    private WaveformTask waveformTask; // Kept so generation can be cancelled on song change
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -70,6 +74,7 @@ public class PlayerActivity extends AppCompatActivity {
 
         handler = new Handler();
         songProgBar = findViewById(R.id.songProgBar);
+        waveformCache = new WaveformCache(new File(getCacheDir(), "waveforms"));
 
         Intent intent = new Intent(getApplicationContext(), PlayerService.class);
 
@@ -195,6 +200,7 @@ public class PlayerActivity extends AppCompatActivity {
         // If erroneous song index received, assume from 'prev' or 'next' btn click, so stop player
         if (position >= musicAdapter.getCount() || position < 0) {
             player.stop();
+            cancelWaveform();
             currentSongIndex = -1;
             return;
         }
@@ -216,16 +222,32 @@ public class PlayerActivity extends AppCompatActivity {
     /** Plays song pointed to by the cursor object. */
     private void playSongAtCursor() {
 
-        player.stop(); // New media player instantiated for each file, so can stop instead of pause
+        player.stop(); // Player is reset for each file, so can stop instead of pause
+        cancelWaveform();
 
         Cursor cursor = musicAdapter.getCursor();
         int pathColIndex = cursor.getColumnIndex(MediaStore.Audio.Media.DATA);
 
         if (cursor.isClosed() || pathColIndex < 0) return;
 
-        if (!player.load(cursor.getString(pathColIndex))) return;
+        String path = cursor.getString(pathColIndex);
+
+        if (!player.load(path)) return;
 
         songProgBar.setMax(player.getSongDuration());
+
+        waveformTask = new WaveformTask(waveformCache, path, songProgBar);
+        waveformTask.execute();
+    }
+
+    /** Cancels any in-progress waveform generation and clears the displayed waveform. */
+    private void cancelWaveform() {
+
+        if (waveformTask != null) {
+            waveformTask.cancel(false); // Task polls for cancellation, no need to interrupt
+            waveformTask = null;
+        }
+        songProgBar.setPeaks(null);
     }
 
     // ---  GUI Control Methods  --- //
@@ -350,6 +372,10 @@ public class PlayerActivity extends AppCompatActivity {
         // Remove any handler posts, just in case any still exist
         handler.removeCallbacksAndMessages(null);
 
+        if (waveformTask != null) {
+            waveformTask.cancel(false);
+        }
+
         musicAdapter.getCursor().close();
 
         if(conn != null) {
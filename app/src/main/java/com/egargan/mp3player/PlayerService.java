@@ -11,6 +11,8 @@ import android.os.IBinder;
 import android.support.v4.app.NotificationCompat;
 import android.util.Log;
 
+import java.util.Set;
+
 /**
  *  Service wrapper for MP3Player class. Exists as a foreground service, whose status bar
  *  notification can be used to navigate back to / relaunch PlayerActivity.
@@ -23,13 +25,16 @@ public class PlayerService extends Service {
     private NotificationCompat.Builder notiBuilder;
 
     private MP3Player player;
+    private EffectsPresetStore presetStore;
 
     private Handler handler;
     private boolean isPolling = false; // Bool to prevent duplicate runnables
 
     @Override
     public void onCreate() {
-        player = new MP3Player();
+        presetStore = new EffectsPresetStore(this);
+        player = new MP3Player(
+                new EffectsChain(new AndroidEffectsBackend(), presetStore.loadCurrent()));
         super.onCreate();
     }
 
@@ -65,7 +70,7 @@ public class PlayerService extends Service {
 
         ((NotificationManager) getSystemService(NOTIFICATION_SERVICE)).cancel(ID_NOTI_PLAYER);
 
-        player.stop();
+        player.release();
         player = null;
 
         super.onDestroy();
@@ -185,4 +190,33 @@ public class PlayerService extends Service {
         updateNotification();
     }
 
+    // -- Effects methods -- //
+
+    public EffectsPreset getEffectsPreset() { return player.getEffects().getPreset(); }
+
+    /** @return Number of equalizer bands on this device, or 0 if no song has been loaded yet. */
+    public int getEqualizerBandCount() { return player.getEffects().getBandCount(); }
+
+    /** Applies preset to the player, and saves it to be restored next time the service starts. */
+    public void setEffectsPreset(EffectsPreset preset) {
+        player.getEffects().setPreset(preset);
+        presetStore.saveCurrent(preset);
+    }
+
+    public void saveEffectsPreset(String name) {
+        presetStore.save(name, getEffectsPreset());
+    }
+
+    /** @return True if named preset found and applied, false otherwise. */
+    public boolean loadEffectsPreset(String name) {
+
+        EffectsPreset preset = presetStore.load(name);
+        if (preset == null) return false;
+
+        setEffectsPreset(preset);
+        return true;
+    }
+
+    public Set<String> getEffectsPresetNames() { return presetStore.getNames(); }
+
 }
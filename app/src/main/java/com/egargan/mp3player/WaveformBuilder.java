@@ -0,0 +1,59 @@
+package com.egargan.mp3player;
+
+/**
+ * Reduces a stream of decoded audio amplitudes down to a fixed number of peak values.
+ * Amplitudes are bucketed by their timestamp, so the builder doesn't need to know the
+ * sample rate or channel count of the source - just the track's duration.
+ */
+public class WaveformBuilder {
+
+    private final int[] peaks;
+    private final long durationUs;
+
+    /** @param peakCount Number of peak values the finished waveform will hold.
+     *  @param durationUs Duration of the track in microseconds. */
+    public WaveformBuilder(int peakCount, long durationUs) {
+        if (peakCount <= 0 || durationUs <= 0)
+            throw new IllegalArgumentException("Peak count and duration must be positive");
+
+        this.peaks = new int[peakCount];
+        this.durationUs = durationUs;
+    }
+
+    /** Records an amplitude, keeping it only if it is the loudest seen in its bucket so far.
+     *  @param timeUs Presentation time of the amplitude, in microseconds.
+     *  @param amplitude Absolute 16-bit sample value, i.e. 0 to 32768. */
+    public void add(long timeUs, int amplitude) {
+
+        // Duration is only an estimate for some files, so clamp to the last bucket
+        int index = (int) Math.min(peaks.length - 1,
+                Math.max(0, timeUs * peaks.length / durationUs));
+
+        if (amplitude > peaks[index]) {
+            peaks[index] = amplitude;
+        }
+    }
+
+    /** Scans a run of interleaved 16-bit samples and records its loudest amplitude.
+     *  @param timeUs Presentation time of the first sample. */
+    public void add(long timeUs, short[] samples, int count) {
+
+        int max = 0;
+        for (int i = 0; i < count; i++) {
+            int abs = Math.abs((int) samples[i]);
+            if (abs > max) max = abs;
+        }
+        add(timeUs, max);
+    }
+
+    /** @return Peaks scaled down to one unsigned byte each, 0 to 255. */
+    public byte[] build() {
+
+        byte[] out = new byte[peaks.length];
+        for (int i = 0; i < peaks.length; i++) {
+            out[i] = (byte) Math.min(255, peaks[i] >> 7);
+        }
+        return out;
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.egargan.mp3player;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Disk cache of generated waveform peaks. Entries are keyed by the audio file's path and
+ * last-modified time, so a track that changes on disk will be regenerated rather than
+ * shown with a stale waveform.
+ *
+ * Each audio file gets a single cache file, so re-generating for a modified track
+ * replaces the old entry instead of leaving it behind. The number of entries is bounded,
+ * with the least recently used evicted first, so entries for deleted tracks don't build up.
+ */
+public class WaveformCache {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_PEAKS = 4096; // Sanity limit when reading entries back
+    private static final int DEFAULT_MAX_ENTRIES = 500;
+
+    private static final String ENTRY_SUFFIX = ".wf";
+
+    private final File dir;
+    private final int maxEntries;
+
+    public WaveformCache(File dir) {
+        this(dir, DEFAULT_MAX_ENTRIES);
+    }
+
+    WaveformCache(File dir, int maxEntries) {
+        this.dir = dir;
+        this.maxEntries = maxEntries;
+    }
+
+    /** @return Cached peaks for the given audio file, or null if none exist or are stale. */
+    public byte[] get(String audioPath) {
+
+        File entry = entryFor(audioPath);
+        if (!entry.isFile()) return null;
+
+        long mtime = new File(audioPath).lastModified();
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(entry)))) {
+
+            // Path is stored in the entry itself, as file names are only hashes of it
+            if (in.readInt() != FORMAT_VERSION ||
+                    !in.readUTF().equals(audioPath) ||
+                    in.readLong() != mtime)
+                return null;
+
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_PEAKS) return null;
+
+            byte[] peaks = new byte[length];
+            in.readFully(peaks);
+
+            entry.setLastModified(System.currentTimeMillis()); // Mark as recently used
+            return peaks;
+
+        } catch (IOException e) {
+            return null; // Treat unreadable entries as a miss, they'll be overwritten
+        }
+    }
+
+    /** Stores peaks for the given audio file. Failure to write is not fatal - the
+     *  waveform will simply be generated again next time.
+     *  @param mtime Last-modified time of the file when the peaks were generated from it. */
+    public void put(String audioPath, long mtime, byte[] peaks) {
+
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+
+        File entry = entryFor(audioPath);
+        File temp = new File(dir, entry.getName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp)))) {
+
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(audioPath);
+            out.writeLong(mtime);
+            out.writeInt(peaks.length);
+            out.write(peaks);
+
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+
+        // Rename into place, so a half-written entry is never read
+        if (!temp.renameTo(entry)) {
+            temp.delete();
+            return;
+        }
+
+        evictOldest();
+    }
+
+    /** Deletes least recently used entries until the cache is back within its bound. */
+    private void evictOldest() {
+
+        File[] entries = dir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(ENTRY_SUFFIX);
+            }
+        });
+
+        if (entries == null || entries.length <= maxEntries) return;
+
+        Arrays.sort(entries, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+
+        for (int i = 0; i < entries.length - maxEntries; i++) {
+            entries[i].delete();
+        }
+    }
+
+    /** Names entries by SHA-1 of the path, so distinct tracks don't share an entry. */
+    private File entryFor(String audioPath) {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every Java platform must provide SHA-1
+        }
+
+        StringBuilder name = new StringBuilder();
+        for (byte b : digest.digest(audioPath.getBytes(StandardCharsets.UTF_8))) {
+            name.append(String.format("%02x", b));
+        }
+        return new File(dir, name + ENTRY_SUFFIX);
+    }
+
+}
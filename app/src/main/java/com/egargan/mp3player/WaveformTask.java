@@ -0,0 +1,193 @@
+package com.egargan.mp3player;
+
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.os.AsyncTask;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Background task that produces a song's waveform, either from the cache or by decoding
+ * the whole file once. Decoding happens in the codec service, outside this thread's priority,
+ * so the task paces itself instead: it waits for playback to get going before starting,
+ * then sleeps briefly every few buffers to leave the codec free for the player.
+ * Cancellation is checked between every buffer, so a song change stops it almost immediately.
+ */
+public class WaveformTask extends AsyncTask<Void, Void, byte[]> {
+
+    public static final int PEAK_COUNT = 300;
+
+    private static final long DEQUEUE_TIMEOUT_US = 10000;
+
+    private static final long START_DELAY_MS = 1500; // Lets playback start + buffer first
+    private static final int BUFFERS_PER_PAUSE = 8;
+    private static final long PAUSE_MS = 10;
+
+    private final WaveformCache cache;
+    private final String filePath;
+    private final WeakReference<WaveformView> viewRef; // Don't hold on to a destroyed activity
+
+    public WaveformTask(WaveformCache cache, String filePath, WaveformView view) {
+        this.cache = cache;
+        this.filePath = filePath;
+        this.viewRef = new WeakReference<>(view);
+    }
+
+    @Override
+    protected byte[] doInBackground(Void... voids) {
+
+        Process.setThreadPriority(Process.THREAD_PRIORITY_LOWEST);
+
+        byte[] peaks = cache.get(filePath);
+        if (peaks != null) return peaks;
+
+        // Taken before decoding, so a file rewritten mid-decode won't be cached as current
+        long mtime = new File(filePath).lastModified();
+
+        try {
+            if (!sleepUnlessCancelled(START_DELAY_MS)) return null;
+            peaks = decodePeaks();
+        } catch (InterruptedException e) {
+            return null;
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            Log.e("WaveformTask", e.toString());
+            return null;
+        }
+
+        if (peaks != null && !isCancelled()) {
+            cache.put(filePath, mtime, peaks);
+        }
+        return peaks;
+    }
+
+    @Override
+    protected void onPostExecute(byte[] peaks) {
+        WaveformView view = viewRef.get();
+        if (view != null && peaks != null) {
+            view.setPeaks(peaks);
+        }
+    }
+
+    /** Decodes the file to PCM and reduces it to peaks.
+     *  @return Peaks, or null if the file has no audio track or the task was cancelled. */
+    private byte[] decodePeaks() throws IOException, InterruptedException {
+
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        boolean codecStarted = false;
+
+        try {
+            extractor.setDataSource(filePath);
+
+            MediaFormat format = selectAudioTrack(extractor);
+            if (format == null || !format.containsKey(MediaFormat.KEY_DURATION)) return null;
+
+            WaveformBuilder builder =
+                    new WaveformBuilder(PEAK_COUNT, format.getLong(MediaFormat.KEY_DURATION));
+
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+            codecStarted = true;
+
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            short[] samples = new short[0];
+            boolean inputDone = false;
+            boolean outputDone = false;
+            int buffersSincePause = 0;
+
+            while (!outputDone) {
+
+                if (isCancelled()) return null;
+
+                if (!inputDone) {
+                    int inIndex = codec.dequeueInputBuffer(DEQUEUE_TIMEOUT_US);
+                    if (inIndex >= 0) {
+                        ByteBuffer inBuf = codec.getInputBuffer(inIndex);
+                        int size = extractor.readSampleData(inBuf, 0);
+
+                        if (size < 0) {
+                            codec.queueInputBuffer(inIndex, 0, 0, 0,
+                                    MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(inIndex, 0, size,
+                                    extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                int outIndex = codec.dequeueOutputBuffer(info, DEQUEUE_TIMEOUT_US);
+                if (outIndex < 0) continue; // Format change or timeout, nothing to read
+
+                if (info.size > 0) {
+                    ByteBuffer outBuf = codec.getOutputBuffer(outIndex);
+                    outBuf.position(info.offset);
+                    outBuf.limit(info.offset + info.size);
+
+                    ShortBuffer pcm = outBuf.order(ByteOrder.nativeOrder()).asShortBuffer();
+                    int count = pcm.remaining();
+                    if (samples.length < count) samples = new short[count];
+                    pcm.get(samples, 0, count);
+
+                    builder.add(info.presentationTimeUs, samples, count);
+                }
+
+                codec.releaseOutputBuffer(outIndex, false);
+                outputDone = (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+
+                if (++buffersSincePause >= BUFFERS_PER_PAUSE) {
+                    buffersSincePause = 0;
+                    Thread.sleep(PAUSE_MS);
+                }
+            }
+
+            return builder.build();
+
+        } finally {
+            if (codec != null) {
+                if (codecStarted) codec.stop();
+                codec.release();
+            }
+            extractor.release();
+        }
+    }
+
+    /** Sleeps in short slices, checking for cancellation between each, so a cancelled task
+     *  doesn't hold up the next one queued behind it.
+     *  @return False if cancelled before the full time elapsed. */
+    private boolean sleepUnlessCancelled(long millis) throws InterruptedException {
+
+        for (long slept = 0; slept < millis; slept += PAUSE_MS) {
+            if (isCancelled()) return false;
+            Thread.sleep(PAUSE_MS);
+        }
+        return !isCancelled();
+    }
+
+    /** Selects first audio track in the file.
+     *  @return Format of the selected track, or null if none found. */
+    private static MediaFormat selectAudioTrack(MediaExtractor extractor) {
+
+        for (int i = 0; i < extractor.getTrackCount(); i++) {
+            MediaFormat format = extractor.getTrackFormat(i);
+            String mime = format.getString(MediaFormat.KEY_MIME);
+
+            if (mime != null && mime.startsWith("audio/")) {
+                extractor.selectTrack(i);
+                return format;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.egargan.mp3player;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.view.View;
+
+/**
+ * Seek bar replacement that draws the current song's waveform, with the played portion
+ * highlighted. Mirrors ProgressBar's setMax/setProgress so it can be driven the same way.
+ *
+ * Bar geometry is only recalculated when the peaks or view size change - drawing a frame
+ * is just two clipped drawLines calls, so it's cheap enough to redraw on every progress poll.
+ */
+public class WaveformView extends View {
+
+    private byte[] peaks;
+    private float[] lines; // Precomputed (x0, y0, x1, y1) for each peak's bar
+
+    private int max = 1;
+    private int progress = 0;
+    private int progressX = 0; // Pixel position of progress, used to skip needless redraws
+
+    private final Paint playedPaint = new Paint();
+    private final Paint unplayedPaint = new Paint();
+
+    public WaveformView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+
+        playedPaint.setColor(context.getColor(R.color.colorWaveformPlayed));
+        unplayedPaint.setColor(context.getColor(R.color.colorWaveformUnplayed));
+    }
+
+    /** @param peaks Waveform peaks to draw, or null to show a flat line until they're ready. */
+    public void setPeaks(@Nullable byte[] peaks) {
+        this.peaks = peaks;
+        computeLines();
+        invalidate();
+    }
+
+    public void setMax(int max) {
+        this.max = Math.max(1, max);
+        setProgress(progress);
+    }
+
+    public void setProgress(int progress) {
+        this.progress = progress;
+
+        int x = (int) ((long) getWidth() * Math.min(progress, max) / max);
+        if (x != progressX) {
+            progressX = x;
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        computeLines();
+        progressX = -1; // Force next setProgress to redraw
+        setProgress(progress);
+    }
+
+    /** Lays out one vertical bar per peak, centred on the view and scaled to the loudest
+     *  peak, so quiet tracks still fill the view. */
+    private void computeLines() {
+
+        int width = getWidth();
+        int height = getHeight();
+
+        if (width == 0 || height == 0) return;
+
+        float centre = height / 2f;
+
+        if (peaks == null || peaks.length == 0) {
+            lines = new float[] { 0, centre, width, centre };
+            playedPaint.setStrokeWidth(1);
+            unplayedPaint.setStrokeWidth(1);
+            return;
+        }
+
+        int loudest = 1;
+        for (byte peak : peaks) {
+            loudest = Math.max(loudest, peak & 0xFF);
+        }
+
+        float barWidth = (float) width / peaks.length;
+        lines = new float[peaks.length * 4];
+
+        for (int i = 0; i < peaks.length; i++) {
+            float x = (i + 0.5f) * barWidth;
+            // Keep a minimum of 1px so silent sections are still visible
+            float half = Math.max(0.5f, centre * (peaks[i] & 0xFF) / loudest);
+
+            lines[i * 4] = x;
+            lines[i * 4 + 1] = centre - half;
+            lines[i * 4 + 2] = x;
+            lines[i * 4 + 3] = centre + half;
+        }
+
+        // Leave a small gap between bars
+        playedPaint.setStrokeWidth(Math.max(1, barWidth * 0.7f));
+        unplayedPaint.setStrokeWidth(Math.max(1, barWidth * 0.7f));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (lines == null) return;
+
+        int width = getWidth();
+        int height = getHeight();
+        int split = Math.max(0, progressX);
+
+        canvas.save();
+        canvas.clipRect(0, 0, split, height);
+        canvas.drawLines(lines, playedPaint);
+        canvas.restore();
+
+        canvas.save();
+        canvas.clipRect(split, 0, width, height);
+        canvas.drawLines(lines, unplayedPaint);
+        canvas.restore();
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.egargan.mp3player;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for binding effects presets to a player's audio session.
+ */
+public class EffectsChainTest {
+
+    private FakeEffectsBackend backend;
+    private EffectsChain chain;
+
+    @Before
+    public void setUp() throws Exception {
+        backend = new FakeEffectsBackend(3, -1500, 1500);
+        chain = new EffectsChain(backend, EffectsPresetTest.ROCK);
+    }
+
+    @Test
+    public void attachPushesWholePresetThenEnables() throws Exception {
+        chain.attach(7);
+
+        assertEquals(Arrays.asList("attach 7", "band 0 500", "band 1 200", "band 2 -100",
+                "bass 300", "virtualizer 0", "loudness 100", "enabled true"), backend.calls);
+    }
+
+    @Test
+    public void reattachingSameSessionKeepsEffects() throws Exception {
+        chain.attach(7);
+        backend.calls.clear();
+
+        chain.attach(7);
+
+        assertEquals(Collections.emptyList(), backend.calls);
+    }
+
+    @Test
+    public void deadEffectsRecreatedOnSameSession() throws Exception {
+        chain.attach(7);
+        backend.killEffects();
+        backend.calls.clear();
+
+        chain.attach(7);
+
+        assertEquals(Arrays.asList("attach 7", "band 0 500", "band 1 200", "band 2 -100",
+                "bass 300", "virtualizer 0", "loudness 100", "enabled true"), backend.calls);
+    }
+
+    @Test
+    public void newSessionRecreatesEffects() throws Exception {
+        chain.attach(7);
+        backend.calls.clear();
+
+        chain.attach(8);
+
+        assertEquals("attach 8", backend.calls.get(0));
+        assertTrue(backend.calls.contains("band 0 500"));
+    }
+
+    @Test
+    public void presetChangeOnlyAppliesDifferences() throws Exception {
+        chain.attach(7);
+        backend.calls.clear();
+
+        chain.setPreset(new EffectsPreset(true, new int[] { 500, 0, -100 }, 300, 600, 100));
+
+        assertEquals(Arrays.asList("band 1 0", "virtualizer 600"), backend.calls);
+    }
+
+    @Test
+    public void presetChangeBeforeAttachIsDeferred() throws Exception {
+        chain.setPreset(EffectsPreset.FLAT);
+
+        assertEquals(Collections.emptyList(), backend.calls);
+        assertEquals(EffectsPreset.FLAT, chain.getPreset());
+    }
+
+    @Test
+    public void bandLevelsClampedToBackendRange() throws Exception {
+        chain.setPreset(new EffectsPreset(true, new int[] { 3000, -3000 }, 0, 0, 0));
+        chain.attach(7);
+
+        assertTrue(backend.calls.contains("band 0 1500"));
+        assertTrue(backend.calls.contains("band 1 -1500"));
+        assertTrue(backend.calls.contains("band 2 0")); // Not covered by preset, so flat
+    }
+
+    @Test
+    public void releaseForcesFullReapplyOnNextAttach() throws Exception {
+        chain.attach(7);
+        chain.release();
+        backend.calls.clear();
+
+        chain.attach(7);
+
+        assertEquals(8, backend.calls.size());
+    }
+
+    @Test
+    public void strengthsClampedToPlatformRange() throws Exception {
+        chain.setPreset(new EffectsPreset(true, new int[0], 40000, -5, 0));
+        chain.attach(7);
+
+        assertTrue(backend.calls.contains("bass 1000"));
+        assertTrue(backend.calls.contains("virtualizer 0"));
+    }
+
+    @Test
+    public void clampedStrengthChangeSkippedWhenUnchanged() throws Exception {
+        chain.setPreset(new EffectsPreset(true, new int[0], 2000, 0, 0));
+        chain.attach(7);
+        backend.calls.clear();
+
+        chain.setPreset(new EffectsPreset(true, new int[0], 3000, 0, 0));
+
+        assertEquals(Collections.emptyList(), backend.calls);
+    }
+
+    @Test
+    public void failedAttachRetriedOnSameSession() throws Exception {
+        backend.failNextCall = true;
+        try {
+            chain.attach(7);
+            fail("Expected attach to fail");
+        } catch (IllegalStateException expected) {
+        }
+        backend.calls.clear();
+
+        chain.attach(7);
+
+        assertEquals("attach 7", backend.calls.get(0));
+        assertTrue(backend.calls.contains("enabled true"));
+    }
+}
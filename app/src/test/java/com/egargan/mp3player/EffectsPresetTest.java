@@ -0,0 +1,44 @@
+package com.egargan.mp3player;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for effects preset values and their serialised form.
+ */
+public class EffectsPresetTest {
+
+    /** Shared fixture for effects tests - a preset with every setting non-default. */
+    static final EffectsPreset ROCK =
+            new EffectsPreset(true, new int[] { 500, 200, -100 }, 300, 0, 100);
+
+    @Test
+    public void presetSurvivesSerialisation() throws Exception {
+        assertEquals(ROCK, EffectsPreset.parse(ROCK.serialise()));
+        assertEquals(EffectsPreset.FLAT, EffectsPreset.parse(EffectsPreset.FLAT.serialise()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedPresetRejected() throws Exception {
+        EffectsPreset.parse("1;abc;0;0;0");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedPresetRejected() throws Exception {
+        EffectsPreset.parse("1;500,200");
+    }
+
+    @Test
+    public void parseOrNullReturnsNullForMissingOrCorrupt() throws Exception {
+        assertNull(EffectsPreset.parseOrNull(null));
+        assertNull(EffectsPreset.parseOrNull("garbage"));
+        assertNull(EffectsPreset.parseOrNull("1;x;0;0;0"));
+        assertEquals(ROCK, EffectsPreset.parseOrNull(ROCK.serialise()));
+    }
+
+    @Test
+    public void uncoveredBandsAreFlat() throws Exception {
+        assertEquals(0, ROCK.getBandLevel(5));
+    }
+}
@@ -0,0 +1,76 @@
+package com.egargan.mp3player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory EffectsBackend for local tests. Records every call made to it, in order,
+ * and can be made to throw from its next setter, or have its effects die, to simulate
+ * platform failures.
+ */
+public class FakeEffectsBackend implements EffectsBackend {
+
+    public final List<String> calls = new ArrayList<>();
+
+    public boolean failNextCall = false;
+
+    private boolean attached = false;
+
+    private final int bandCount;
+    private final int minLevel;
+    private final int maxLevel;
+
+    public FakeEffectsBackend(int bandCount, int minLevel, int maxLevel) {
+        this.bandCount = bandCount;
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+    }
+
+    @Override
+    public void attach(int audioSessionId) {
+        calls.add("attach " + audioSessionId);
+        attached = true;
+    }
+
+    @Override
+    public void release() {
+        calls.add("release");
+        attached = false;
+    }
+
+    @Override
+    public boolean isAttached() { return attached; }
+
+    /** Simulates the platform tearing down the session the effects are attached to. */
+    public void killEffects() { attached = false; }
+
+    @Override
+    public int getBandCount() { return bandCount; }
+
+    @Override
+    public int getMinBandLevel() { return minLevel; }
+
+    @Override
+    public int getMaxBandLevel() { return maxLevel; }
+
+    @Override
+    public void setEnabled(boolean enabled) { calls.add("enabled " + enabled); }
+
+    @Override
+    public void setBandLevel(int band, int level) {
+        if (failNextCall) {
+            failNextCall = false;
+            throw new IllegalStateException("Simulated platform failure");
+        }
+        calls.add("band " + band + " " + level);
+    }
+
+    @Override
+    public void setBassBoostStrength(int strength) { calls.add("bass " + strength); }
+
+    @Override
+    public void setVirtualizerStrength(int strength) { calls.add("virtualizer " + strength); }
+
+    @Override
+    public void setLoudnessGain(int gain) { calls.add("loudness " + gain); }
+}
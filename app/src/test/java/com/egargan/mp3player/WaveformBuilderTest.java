@@ -0,0 +1,41 @@
+package com.egargan.mp3player;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for reducing decoded audio to waveform peaks.
+ */
+public class WaveformBuilderTest {
+
+    @Test
+    public void keepsLoudestAmplitudePerBucket() throws Exception {
+        WaveformBuilder builder = new WaveformBuilder(4, 4000);
+
+        builder.add(0, 128 * 10);
+        builder.add(500, 128 * 20);
+        builder.add(999, 128 * 5);
+        builder.add(3000, 128 * 40);
+
+        assertArrayEquals(new byte[] { 20, 0, 0, 40 }, builder.build());
+    }
+
+    @Test
+    public void clampsTimesPastDuration() throws Exception {
+        WaveformBuilder builder = new WaveformBuilder(2, 1000);
+
+        builder.add(5000, 128 * 7);
+
+        assertArrayEquals(new byte[] { 0, 7 }, builder.build());
+    }
+
+    @Test
+    public void scansSampleRunsForAbsolutePeak() throws Exception {
+        WaveformBuilder builder = new WaveformBuilder(1, 1000);
+
+        builder.add(0, new short[] { 100, Short.MIN_VALUE, 200, 0 }, 3);
+
+        assertEquals((byte) 255, builder.build()[0]);
+    }
+}
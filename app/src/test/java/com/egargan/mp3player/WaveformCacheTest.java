@@ -0,0 +1,101 @@
+package com.egargan.mp3player;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the waveform disk cache.
+ */
+public class WaveformCacheTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void returnsStoredPeaks() throws Exception {
+        File song = tmp.newFile("song.mp3");
+        WaveformCache cache = new WaveformCache(new File(tmp.getRoot(), "cache"));
+
+        assertNull(cache.get(song.getPath()));
+
+        cache.put(song.getPath(), song.lastModified(), new byte[] { 1, 2, 3 });
+
+        assertArrayEquals(new byte[] { 1, 2, 3 }, cache.get(song.getPath()));
+    }
+
+    @Test
+    public void missesWhenFileModified() throws Exception {
+        File song = tmp.newFile("song.mp3");
+        song.setLastModified(1000000);
+        WaveformCache cache = new WaveformCache(new File(tmp.getRoot(), "cache"));
+
+        cache.put(song.getPath(), song.lastModified(), new byte[] { 1, 2, 3 });
+        song.setLastModified(2000000);
+
+        assertNull(cache.get(song.getPath()));
+    }
+
+    @Test
+    public void missesWhenFileModifiedDuringGeneration() throws Exception {
+        File song = tmp.newFile("song.mp3");
+        song.setLastModified(1000000);
+        WaveformCache cache = new WaveformCache(new File(tmp.getRoot(), "cache"));
+
+        long mtimeAtStart = song.lastModified();
+        song.setLastModified(2000000); // Rewritten while peaks were being decoded
+        cache.put(song.getPath(), mtimeAtStart, new byte[] { 1, 2, 3 });
+
+        assertNull(cache.get(song.getPath()));
+    }
+
+    @Test
+    public void keepsSeparateEntriesForHashCollidingPaths() throws Exception {
+        // "Aa" and "BB" share a String.hashCode
+        File dirA = tmp.newFolder("Aa");
+        File dirB = tmp.newFolder("BB");
+        File songA = new File(dirA, "song.mp3");
+        File songB = new File(dirB, "song.mp3");
+        assertTrue(songA.createNewFile() && songB.createNewFile());
+        WaveformCache cache = new WaveformCache(new File(tmp.getRoot(), "cache"));
+
+        cache.put(songA.getPath(), songA.lastModified(), new byte[] { 1 });
+        cache.put(songB.getPath(), songB.lastModified(), new byte[] { 2 });
+
+        assertArrayEquals(new byte[] { 1 }, cache.get(songA.getPath()));
+        assertArrayEquals(new byte[] { 2 }, cache.get(songB.getPath()));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondBound() throws Exception {
+        File songA = tmp.newFile("a.mp3");
+        File songB = tmp.newFile("b.mp3");
+        File songC = tmp.newFile("c.mp3");
+        File dir = new File(tmp.getRoot(), "cache");
+        WaveformCache cache = new WaveformCache(dir, 2);
+
+        cache.put(songA.getPath(), songA.lastModified(), new byte[] { 1 });
+        setEntryTimes(dir, 1000000);
+        cache.put(songB.getPath(), songB.lastModified(), new byte[] { 2 });
+        setEntryTimes(dir, 2000000); // B now newer than A...
+
+        assertNotNull(cache.get(songA.getPath())); // ...until A is used again
+
+        cache.put(songC.getPath(), songC.lastModified(), new byte[] { 3 });
+
+        assertNotNull(cache.get(songA.getPath()));
+        assertNull(cache.get(songB.getPath()));
+        assertNotNull(cache.get(songC.getPath()));
+    }
+
+    /** Sets last-modified of every entry not already at an earlier set time. */
+    private static void setEntryTimes(File dir, long time) {
+        for (File entry : dir.listFiles()) {
+            if (entry.lastModified() > time) entry.setLastModified(time);
+        }
+    }
+}